@@ -1,22 +1,74 @@
 @echo off
 set PROJECT_DIR=%CD%
+set APP_JAR=%PROJECT_DIR%\bin\huffman.jar
+set CDS_ARCHIVE=%PROJECT_DIR%\bin\huffman.jsa
+set SRC_STAMP=%PROJECT_DIR%\bin\src-stamp
 
+:: Recompiler si demandé (run.bat rebuild), si rien n'est compilé,
+:: ou si un source est plus récent que sa copie prise lors de la dernière compilation
+if "%1"=="rebuild" goto build
+if not exist "%APP_JAR%" goto build
+set STALE_SOURCES=0
+for /f %%N in ('xcopy /D /L /S /Y "%PROJECT_DIR%\src\*.java" "%SRC_STAMP%\" ^| find /c ".java"') do set STALE_SOURCES=%%N
+if not "%STALE_SOURCES%"=="0" (
+    echo %STALE_SOURCES% fichier^(s^) source modifie^(s^) depuis la derniere compilation.
+    goto build
+)
+echo Utilisation de la compilation en cache ^(run.bat rebuild pour forcer^).
+goto launch
+
+:build
 :: Créer un dossier pour les fichiers compilés s'il n'existe pas
-if not exist "%PROJECT_DIR%\bin" mkdir "%PROJECT_DIR%\bin"
+if exist "%PROJECT_DIR%\bin\classes" rmdir /s /q "%PROJECT_DIR%\bin\classes"
+mkdir "%PROJECT_DIR%\bin\classes"
 
 :: Compiler les fichiers Java
-javac -d "%PROJECT_DIR%\bin" "%PROJECT_DIR%\src\com\huffman\core\HuffmanCoding.java" ^
-    "%PROJECT_DIR%\src\com\huffman\core\ImageProcessor.java" ^
-    "%PROJECT_DIR%\src\com\huffman\core\WavProcessor.java" ^
-    "%PROJECT_DIR%\src\com\huffman\ui\HuffmanUI.java" ^
+javac -encoding UTF-8 -d "%PROJECT_DIR%\bin\classes" "%PROJECT_DIR%\src\com\huffman\core\*.java" ^
+    "%PROJECT_DIR%\src\com\huffman\ui\*.java" ^
     "%PROJECT_DIR%\src\Main.java"
 
 :: Vérifier si la compilation a réussi
-if %ERRORLEVEL% EQU 0 (
-    echo Compilation reussie. Lancement de l'application...
-    :: Lancer l'application
-    java -cp "%PROJECT_DIR%\bin" Main
-) else (
+if %ERRORLEVEL% NEQ 0 (
     echo Erreur lors de la compilation.
+    pause
+    exit /b 1
+)
+echo Compilation reussie.
+
+:: L'archive CDS exige un classpath en JAR (pas de dossier)
+if exist "%APP_JAR%" del "%APP_JAR%"
+jar --create --file "%APP_JAR%" --main-class Main -C "%PROJECT_DIR%\bin\classes" .
+
+:: Vérifications du codec (décodage par blocs, zéro allocation) : échec = build refusé
+if exist "%PROJECT_DIR%\bin\test-classes" rmdir /s /q "%PROJECT_DIR%\bin\test-classes"
+mkdir "%PROJECT_DIR%\bin\test-classes"
+javac -encoding UTF-8 -cp "%APP_JAR%" -d "%PROJECT_DIR%\bin\test-classes" "%PROJECT_DIR%\test\com\huffman\core\*.java"
+if %ERRORLEVEL% NEQ 0 goto checks_failed
+java -cp "%APP_JAR%;%PROJECT_DIR%\bin\test-classes" com.huffman.core.CodecChecks
+if %ERRORLEVEL% NEQ 0 goto checks_failed
+
+:: Copie des sources compilées, pour détecter les modifications au prochain lancement
+if exist "%SRC_STAMP%" rmdir /s /q "%SRC_STAMP%"
+xcopy /S /I /Q /Y "%PROJECT_DIR%\src\*.java" "%SRC_STAMP%\" >nul
+
+:: Générer l'archive AppCDS à partir d'un démarrage à blanc
+if exist "%CDS_ARCHIVE%" del "%CDS_ARCHIVE%"
+echo Generation de l'archive CDS...
+java -XX:ArchiveClassesAtExit="%CDS_ARCHIVE%" -cp "%APP_JAR%" Main --startup-only
+goto launch
+
+:checks_failed
+echo Echec des verifications du codec.
+:: Supprimer le JAR pour que le prochain lancement recompile
+if exist "%APP_JAR%" del "%APP_JAR%"
+pause
+exit /b 1
+
+:launch
+echo Lancement de l'application...
+if exist "%CDS_ARCHIVE%" (
+    java -XX:SharedArchiveFile="%CDS_ARCHIVE%" -Xshare:auto -cp "%APP_JAR%" Main
+) else (
+    java -cp "%APP_JAR%" Main
 )
 pause
\ No newline at end of file
@@ -1,11 +1,70 @@
 import javax.swing.*;
 
+import com.huffman.core.DictionaryStore;
 import com.huffman.ui.HuffmanUI;
 
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
 public class Main {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("train")) {
+            train(args);
+            return;
+        }
+
+        // --startup-only : ouvre la fenêtre, la peint une fois puis quitte (génération de l'archive CDS)
+        boolean startupOnly = args.length > 0 && args[0].equals("--startup-only");
         SwingUtilities.invokeLater(() -> {
-            new HuffmanUI().setVisible(true);
+            HuffmanUI ui = new HuffmanUI();
+            if (startupOnly) {
+                ui.addWindowListener(new WindowAdapter() {
+                    @Override
+                    public void windowOpened(WindowEvent e) {
+                        SwingUtilities.invokeLater(() -> {
+                            // Forcer le premier rendu (Java2D, polices) avant de quitter
+                            ui.getRootPane().paintImmediately(ui.getRootPane().getBounds());
+                            ui.dispose();
+                            System.exit(0);
+                        });
+                    }
+                });
+            }
+            ui.setVisible(true);
         });
     }
+
+    // Usage : train <fichier du dictionnaire> <id> <corpus...>
+    private static void train(String[] args) {
+        if (args.length < 4) {
+            System.err.println("Usage: java Main train <store file> <dictionary id> <corpus files...>");
+            System.exit(1);
+        }
+
+        try {
+            Path store = Paths.get(args[1]);
+            int id = Integer.parseInt(args[2]);
+            if (id < 0) {
+                System.err.println("Dictionary id must be non-negative: " + id);
+                System.exit(1);
+            }
+            List<Path> corpus = new ArrayList<>();
+            for (int i = 3; i < args.length; i++) {
+                corpus.add(Paths.get(args[i]));
+            }
+            DictionaryStore.trainInto(store, id, corpus);
+            System.out.println("Dictionary " + id + " trained from " + corpus.size() + " file(s) into " + store);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid dictionary id: " + args[2]);
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Training failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
 }
\ No newline at end of file
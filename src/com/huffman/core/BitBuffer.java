@@ -0,0 +1,228 @@
+package com.huffman.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-capacity sequence of bits stored off-heap in a direct {@link ByteBuffer},
+ * most significant bit first within each byte.
+ *
+ * Like the NIO buffers it has a position, a limit and a capacity, all counted
+ * in bits. Relative {@code put}/{@code get} calls advance the position; the
+ * absolute variants take a bit index. {@link #slice()} shares the underlying
+ * storage, so extractors can fill a buffer and hand a view of it to the decoder
+ * without copying.
+ */
+public final class BitBuffer {
+    private final ByteBuffer data;
+    private final int offset;
+    private final int capacity;
+    private int position;
+    private int limit;
+
+    private BitBuffer(ByteBuffer data, int offset, int capacity) {
+        this.data = data;
+        this.offset = offset;
+        this.capacity = capacity;
+        this.limit = capacity;
+    }
+
+    public static BitBuffer allocate(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Negative capacity: " + capacity);
+        return new BitBuffer(ByteBuffer.allocateDirect((capacity + 7) / 8), 0, capacity);
+    }
+
+    /**
+     * Parses a string of '0'/'1' characters into a flipped buffer ready for reading.
+     */
+    public static BitBuffer fromString(CharSequence bits) {
+        BitBuffer buffer = allocate(bits.length());
+        for (int i = 0; i < bits.length(); i++) {
+            char c = bits.charAt(i);
+            if (c != '0' && c != '1') {
+                throw new IllegalArgumentException("Invalid bit '" + c + "' at index " + i);
+            }
+            buffer.put(c == '1');
+        }
+        return buffer.flip();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public BitBuffer position(int newPosition) {
+        if (newPosition < 0 || newPosition > limit) {
+            throw new IllegalArgumentException("Position out of range: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public BitBuffer limit(int newLimit) {
+        if (newLimit < 0 || newLimit > capacity) {
+            throw new IllegalArgumentException("Limit out of range: " + newLimit);
+        }
+        limit = newLimit;
+        if (position > limit) position = limit;
+        return this;
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    public BitBuffer clear() {
+        position = 0;
+        limit = capacity;
+        return this;
+    }
+
+    public BitBuffer flip() {
+        limit = position;
+        position = 0;
+        return this;
+    }
+
+    public BitBuffer rewind() {
+        position = 0;
+        return this;
+    }
+
+    /**
+     * Returns a view of the bits between position and limit. Both buffers share
+     * storage but keep independent positions and limits.
+     */
+    public BitBuffer slice() {
+        return slice(position, remaining());
+    }
+
+    public BitBuffer slice(int index, int length) {
+        if (index < 0 || length < 0 || index + length > capacity) {
+            throw new IndexOutOfBoundsException("Slice out of range: " + index + "+" + length);
+        }
+        return new BitBuffer(data, offset + index, length);
+    }
+
+    public boolean get() {
+        if (position >= limit) throw new IndexOutOfBoundsException("No bits remaining");
+        return getBit(position++);
+    }
+
+    public long get(int count) {
+        if (count > limit - position) throw new IndexOutOfBoundsException("Not enough bits remaining");
+        long value = getBits(position, count);
+        position += count;
+        return value;
+    }
+
+    public BitBuffer put(boolean bit) {
+        if (position >= limit) throw new IndexOutOfBoundsException("Buffer full");
+        putBit(position++, bit);
+        return this;
+    }
+
+    public BitBuffer put(long value, int count) {
+        if (count > limit - position) throw new IndexOutOfBoundsException("Buffer full");
+        putBits(position, value, count);
+        position += count;
+        return this;
+    }
+
+    public boolean getBit(int index) {
+        checkIndex(index, 1);
+        int bit = offset + index;
+        return ((data.get(bit >>> 3) >>> (7 - (bit & 7))) & 1) != 0;
+    }
+
+    public void putBit(int index, boolean value) {
+        checkIndex(index, 1);
+        int bit = offset + index;
+        int byteIndex = bit >>> 3;
+        int mask = 1 << (7 - (bit & 7));
+        int current = data.get(byteIndex);
+        data.put(byteIndex, (byte) (value ? current | mask : current & ~mask));
+    }
+
+    /**
+     * Reads {@code count} bits (0 to 64) starting at {@code index}; the first
+     * bit read ends up as the most significant bit of the result.
+     */
+    public long getBits(int index, int count) {
+        checkCount(count);
+        checkIndex(index, count);
+        long value = 0;
+        int bit = offset + index;
+        while (count > 0) {
+            int used = bit & 7;
+            int take = Math.min(8 - used, count);
+            int b = data.get(bit >>> 3) & 0xFF;
+            int chunk = (b >>> (8 - used - take)) & ((1 << take) - 1);
+            value = (value << take) | chunk;
+            bit += take;
+            count -= take;
+        }
+        return value;
+    }
+
+    /**
+     * Writes the low {@code count} bits (0 to 64) of {@code value} starting at
+     * {@code index}, most significant bit first.
+     */
+    public void putBits(int index, long value, int count) {
+        checkCount(count);
+        checkIndex(index, count);
+        int bit = offset + index;
+        while (count > 0) {
+            int used = bit & 7;
+            int take = Math.min(8 - used, count);
+            int shift = 8 - used - take;
+            int mask = ((1 << take) - 1) << shift;
+            int chunk = (int) (value >>> (count - take)) & ((1 << take) - 1);
+            int byteIndex = bit >>> 3;
+            int b = data.get(byteIndex);
+            data.put(byteIndex, (byte) ((b & ~mask) | (chunk << shift)));
+            bit += take;
+            count -= take;
+        }
+    }
+
+    /**
+     * Renders the bits between position and limit as '0'/'1' characters, for display.
+     */
+    public String toBinaryString() {
+        StringBuilder sb = new StringBuilder(remaining());
+        for (int i = position; i < limit; i++) {
+            sb.append(getBit(i) ? '1' : '0');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "BitBuffer[pos=" + position + " lim=" + limit + " cap=" + capacity + "]";
+    }
+
+    private void checkIndex(int index, int count) {
+        if (index < 0 || index > capacity - count) {
+            throw new IndexOutOfBoundsException("Bit index out of range: " + index);
+        }
+    }
+
+    private static void checkCount(int count) {
+        if (count < 0 || count > 64) {
+            throw new IllegalArgumentException("Bit count must be between 0 and 64: " + count);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.huffman.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Capacity and LSB statistics of one carrier (image or WAV), per channel and bit-plane.
+ */
+public final class CarrierAnalysis {
+
+    public static final class Channel {
+        private final String name;
+        private final long samples;
+        private final long[] ones;
+        private final double chiSquare;
+        private final int degreesOfFreedom;
+
+        Channel(String name, long samples, long[] ones, long[] lowByteHistogram) {
+            this.name = name;
+            this.samples = samples;
+            this.ones = ones.clone();
+
+            // Test des paires de valeurs (2k, 2k+1) sur l'octet de poids faible
+            double chi = 0;
+            int pairs = 0;
+            for (int k = 0; k < 128; k++) {
+                long even = lowByteHistogram[2 * k];
+                long odd = lowByteHistogram[2 * k + 1];
+                double expected = (even + odd) / 2.0;
+                if (expected == 0) continue;
+                chi += (even - expected) * (even - expected) / expected;
+                pairs++;
+            }
+            this.chiSquare = chi;
+            this.degreesOfFreedom = Math.max(0, pairs - 1);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getBitPlanes() {
+            return ones.length;
+        }
+
+        /**
+         * Bits available in one bit-plane of this channel: one per sample.
+         */
+        public long getCapacity(int plane) {
+            return plane >= 0 && plane < ones.length ? samples : 0;
+        }
+
+        public double getOnesRatio(int plane) {
+            return samples == 0 ? 0 : (double) ones[plane] / samples;
+        }
+
+        /**
+         * Shannon entropy, in bits, of the given bit-plane (1.0 means fully random).
+         */
+        public double getEntropy(int plane) {
+            double p = getOnesRatio(plane);
+            if (p <= 0 || p >= 1) return 0;
+            return -(p * Math.log(p) + (1 - p) * Math.log(1 - p)) / Math.log(2);
+        }
+
+        /**
+         * Pairs-of-values chi-square statistic; values far below the degrees of
+         * freedom mean the LSBs already look equalized, as after embedding.
+         */
+        public double getChiSquare() {
+            return chiSquare;
+        }
+
+        public int getDegreesOfFreedom() {
+            return degreesOfFreedom;
+        }
+    }
+
+    private final String carrier;
+    private final List<Channel> channels;
+    private final long usableBits;
+
+    CarrierAnalysis(String carrier, List<Channel> channels, long usableBits) {
+        this.carrier = carrier;
+        this.channels = Collections.unmodifiableList(new ArrayList<>(channels));
+        this.usableBits = usableBits;
+    }
+
+    public String getCarrier() {
+        return carrier;
+    }
+
+    public List<Channel> getChannels() {
+        return channels;
+    }
+
+    /**
+     * Bits reachable by the current extraction scheme (red LSB per pixel, or LSB per sample).
+     */
+    public long getUsableBits() {
+        return usableBits;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(carrier).append("\n");
+        sb.append("Usable capacity (current scheme): ").append(usableBits).append(" bits\n");
+        for (Channel channel : channels) {
+            sb.append(String.format("%n[%s] %d bits per bit-plane, chi-square %.2f (df %d)%n",
+                channel.getName(), channel.getCapacity(0), channel.getChiSquare(), channel.getDegreesOfFreedom()));
+            for (int plane = 0; plane < channel.getBitPlanes(); plane++) {
+                sb.append(String.format("  bit %2d: ones %.4f, entropy %.4f%n",
+                    plane, channel.getOnesRatio(plane), channel.getEntropy(plane)));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,177 @@
+package com.huffman.core;
+
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Computes {@link CarrierAnalysis} results in parallel over raster rows or
+ * sample blocks, and caches them per file (path, size and modification time).
+ */
+public class CarrierAnalyzer {
+    private static final int ROWS_PER_TASK = 64;
+    private static final int SAMPLES_PER_TASK = 1 << 16;
+
+    private final Map<String, CarrierAnalysis> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Analyzes an image file, reading it only when no cached result matches.
+     */
+    public CarrierAnalysis analyzeImage(File file) throws IOException {
+        CarrierAnalysis cached = cache.get(cacheKey(file));
+        if (cached != null) return cached;
+
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) throw new IOException("Unsupported image format: " + file.getName());
+        return analyzeImage(file, image);
+    }
+
+    /**
+     * Analyzes an already loaded image, caching the result under {@code file}.
+     */
+    public CarrierAnalysis analyzeImage(File file, BufferedImage image) {
+        return cache.computeIfAbsent(cacheKey(file), key -> analyze(file.getName(), image));
+    }
+
+    public CarrierAnalysis analyzeWav(File file) throws IOException, UnsupportedAudioFileException {
+        CarrierAnalysis cached = cache.get(cacheKey(file));
+        if (cached != null) return cached;
+
+        WavProcessor wav = new WavProcessor();
+        try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(file)) {
+            wav.setAudioData(audioInputStream);
+        }
+        return analyzeWav(file, wav);
+    }
+
+    public CarrierAnalysis analyzeWav(File file, WavProcessor wav) {
+        return cache.computeIfAbsent(cacheKey(file), key -> analyze(file.getName(), wav));
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    private static String cacheKey(File file) {
+        return file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+    }
+
+    public static CarrierAnalysis analyze(String name, BufferedImage image) {
+        Raster raster = image.getRaster();
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        int bands = raster.getNumBands();
+        int[] planes = new int[bands];
+        for (int b = 0; b < bands; b++) {
+            planes[b] = Math.min(32, raster.getSampleModel().getSampleSize(b));
+        }
+
+        int tasks = (height + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        Accumulator total = IntStream.range(0, tasks).parallel()
+            .mapToObj(task -> {
+                Accumulator acc = new Accumulator(bands, planes);
+                int[] row = new int[width];
+                int end = Math.min(height, (task + 1) * ROWS_PER_TASK);
+                for (int y = task * ROWS_PER_TASK; y < end; y++) {
+                    for (int b = 0; b < bands; b++) {
+                        raster.getSamples(0, y, width, 1, b, row);
+                        for (int x = 0; x < width; x++) acc.add(b, row[x]);
+                    }
+                }
+                return acc;
+            })
+            .reduce(Accumulator::merge)
+            .orElse(new Accumulator(bands, planes));
+
+        ColorModel colorModel = image.getColorModel();
+        List<CarrierAnalysis.Channel> channels = new ArrayList<>();
+        for (int b = 0; b < bands; b++) {
+            channels.add(total.channel(bandName(colorModel, b), b));
+        }
+        String carrier = String.format("Image %s: %dx%d, %d band(s)", name, width, height, bands);
+        return new CarrierAnalysis(carrier, channels, (long) width * height);
+    }
+
+    public static CarrierAnalysis analyze(String name, WavProcessor wav) {
+        int channelCount = Math.max(1, wav.getChannels());
+        int sampleCount = wav.getSampleCount();
+        int[] planes = new int[channelCount];
+        Arrays.fill(planes, Math.min(32, wav.getSampleSizeInBits()));
+
+        int tasks = (sampleCount + SAMPLES_PER_TASK - 1) / SAMPLES_PER_TASK;
+        Accumulator total = IntStream.range(0, tasks).parallel()
+            .mapToObj(task -> {
+                Accumulator acc = new Accumulator(channelCount, planes);
+                int end = Math.min(sampleCount, (task + 1) * SAMPLES_PER_TASK);
+                for (int i = task * SAMPLES_PER_TASK; i < end; i++) {
+                    acc.add(i % channelCount, wav.sampleValue(i));
+                }
+                return acc;
+            })
+            .reduce(Accumulator::merge)
+            .orElse(new Accumulator(channelCount, planes));
+
+        List<CarrierAnalysis.Channel> channels = new ArrayList<>();
+        for (int c = 0; c < channelCount; c++) {
+            channels.add(total.channel("Channel " + (c + 1), c));
+        }
+        String carrier = String.format("WAV %s: %d-bit, %d channel(s), %d samples",
+            name, wav.getSampleSizeInBits(), channelCount, sampleCount);
+        return new CarrierAnalysis(carrier, channels, sampleCount);
+    }
+
+    private static String bandName(ColorModel colorModel, int band) {
+        if (colorModel instanceof IndexColorModel) return "Index";
+        if (band < colorModel.getNumColorComponents()) return colorModel.getColorSpace().getName(band);
+        return "Alpha";
+    }
+
+    // Compteurs partiels d'une tâche, fusionnés à la fin
+    private static final class Accumulator {
+        final long[] samples;
+        final long[][] ones;
+        final long[][] lowByteHistogram;
+
+        Accumulator(int channels, int[] planes) {
+            samples = new long[channels];
+            ones = new long[channels][];
+            lowByteHistogram = new long[channels][256];
+            for (int c = 0; c < channels; c++) ones[c] = new long[planes[c]];
+        }
+
+        void add(int channel, int value) {
+            samples[channel]++;
+            lowByteHistogram[channel][value & 0xFF]++;
+            long[] channelOnes = ones[channel];
+            for (int p = 0; p < channelOnes.length; p++) {
+                channelOnes[p] += (value >>> p) & 1;
+            }
+        }
+
+        Accumulator merge(Accumulator other) {
+            for (int c = 0; c < samples.length; c++) {
+                samples[c] += other.samples[c];
+                for (int p = 0; p < ones[c].length; p++) ones[c][p] += other.ones[c][p];
+                for (int v = 0; v < 256; v++) lowByteHistogram[c][v] += other.lowByteHistogram[c][v];
+            }
+            return this;
+        }
+
+        CarrierAnalysis.Channel channel(String name, int channel) {
+            return new CarrierAnalysis.Channel(name, samples[channel], ones[channel], lowByteHistogram[channel]);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.huffman.core;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable lookup structures for one Huffman dictionary: sorted symbol
+ * arrays for encoding and a flat binary trie for decoding.
+ */
+final class CodeTable {
+    private final char[] symbols;
+    private final long[] codeBits;
+    private final int[] codeLengths;
+
+    // Noeud n : enfants en tree[2n] (bit 0) et tree[2n+1] (bit 1).
+    // Valeur > 0 : noeud interne, < 0 : feuille -(indice du symbole + 1), 0 : absent.
+    private final int[] tree;
+
+    CodeTable(Map<Character, String> codes) {
+        int size = codes.size();
+        symbols = new char[size];
+        int i = 0;
+        for (char c : codes.keySet()) symbols[i++] = c;
+        Arrays.sort(symbols);
+
+        codeBits = new long[size];
+        codeLengths = new int[size];
+        int[] nodes = new int[Math.max(2, 4 * size)];
+        int nodeCount = 1;
+
+        for (int s = 0; s < size; s++) {
+            String code = codes.get(symbols[s]);
+            if (code.isEmpty() || code.length() > 64) {
+                throw new IllegalArgumentException("Invalid code length for '" + symbols[s] + "': " + code.length());
+            }
+            long bits = 0;
+            int node = 0;
+            for (int b = 0; b < code.length(); b++) {
+                int bit = code.charAt(b) == '1' ? 1 : 0;
+                bits = (bits << 1) | bit;
+                int slot = 2 * node + bit;
+                if (b == code.length() - 1) {
+                    if (nodes[slot] != 0) throw new IllegalArgumentException("Codes are not prefix-free");
+                    nodes[slot] = -(s + 1);
+                } else {
+                    if (nodes[slot] < 0) throw new IllegalArgumentException("Codes are not prefix-free");
+                    if (nodes[slot] == 0) {
+                        if (2 * nodeCount + 1 >= nodes.length) nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                        nodes[slot] = nodeCount++;
+                    }
+                    node = nodes[slot];
+                }
+            }
+            codeBits[s] = bits;
+            codeLengths[s] = code.length();
+        }
+        tree = Arrays.copyOf(nodes, 2 * nodeCount);
+    }
+
+    int size() {
+        return symbols.length;
+    }
+
+    /**
+     * Returns the code length of {@code c}, or 0 if the symbol is not in the table.
+     */
+    int codeLength(char c) {
+        int s = Arrays.binarySearch(symbols, c);
+        return s < 0 ? 0 : codeLengths[s];
+    }
+
+    void encode(char c, BitBuffer dst) {
+        int s = Arrays.binarySearch(symbols, c);
+        if (s < 0) throw new IllegalArgumentException("No Huffman code for character '" + c + "'");
+        dst.put(codeBits[s], codeLengths[s]);
+    }
+
+    /**
+     * Reads one symbol from {@code src}. Returns -1 when the remaining bits do
+     * not complete a code; {@code src} is then moved back to where that partial
+     * code starts. Bits that leave the trie are skipped and decoding restarts
+     * at the root.
+     */
+    int decode(BitBuffer src) {
+        int start = src.position();
+        int node = 0;
+        while (src.hasRemaining()) {
+            int next = tree[2 * node + (src.get() ? 1 : 0)];
+            if (next < 0) return symbols[-next - 1];
+            if (next == 0) start = src.position();
+            node = next;
+        }
+        src.position(start);
+        return -1;
+    }
+}
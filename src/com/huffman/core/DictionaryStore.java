@@ -0,0 +1,257 @@
+package com.huffman.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Read-only set of pre-trained Huffman dictionaries identified by a non-negative integer ID.
+ *
+ * Only code lengths are stored; codes are rebuilt canonically on load, so a
+ * dictionary costs 3 bytes per symbol on disk. File layout (big-endian):
+ * <pre>
+ *   int magic 'HDIC', short version, int count
+ *   count x (int id, int offset)         index, sorted by id
+ *   at offset: int symbols, symbols x (char symbol, byte codeLength)
+ * </pre>
+ */
+public final class DictionaryStore {
+    public static final String DEFAULT_FILE = "dictionaries.bin";
+
+    private static final int MAGIC = 0x48444943;
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 10;
+    private static final int INDEX_ENTRY_BYTES = 8;
+    // En dessous de cette taille le fichier est lu en mémoire plutôt que mappé
+    private static final long HEAP_READ_LIMIT = 4L << 20;
+
+    private final ByteBuffer data;
+    private final int[] ids;
+    private final int[] offsets;
+    private final Map<Integer, Map<Character, String>> cache = new HashMap<>();
+
+    private DictionaryStore(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.remaining() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new IOException("Not a dictionary store");
+        }
+        if (data.getShort(4) != VERSION) {
+            throw new IOException("Unsupported dictionary store version: " + data.getShort(4));
+        }
+        int count = data.getInt(6);
+        if (count < 0 || HEADER_BYTES + (long) count * INDEX_ENTRY_BYTES > data.limit()) {
+            throw new IOException("Corrupt dictionary store index");
+        }
+        ids = new int[count];
+        offsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = data.getInt(HEADER_BYTES + i * INDEX_ENTRY_BYTES);
+            offsets[i] = data.getInt(HEADER_BYTES + i * INDEX_ENTRY_BYTES + 4);
+            if (ids[i] < 0) {
+                throw new IOException("Corrupt dictionary store index: negative ID " + ids[i]);
+            }
+            if (i > 0 && ids[i] <= ids[i - 1]) {
+                throw new IOException("Corrupt dictionary store index: IDs not sorted");
+            }
+            validateEntry(ids[i], offsets[i]);
+        }
+    }
+
+    private void validateEntry(int id, int offset) throws IOException {
+        if (offset < HEADER_BYTES || (long) offset + 4 > data.limit()) {
+            throw new IOException("Dictionary " + id + " offset out of range: " + offset);
+        }
+        int symbols = data.getInt(offset);
+        if (symbols < 0 || (long) offset + 4 + (long) symbols * 3 > data.limit()) {
+            throw new IOException("Dictionary " + id + " is truncated");
+        }
+        BitSet seen = new BitSet(Character.MAX_VALUE + 1);
+        int[] lengthCounts = new int[65];
+        for (int i = 0; i < symbols; i++) {
+            char symbol = data.getChar(offset + 4 + i * 3);
+            int length = data.get(offset + 6 + i * 3) & 0xFF;
+            if (length < 1 || length > 64) {
+                throw new IOException("Dictionary " + id + " has an invalid code length: " + length);
+            }
+            if (seen.get(symbol)) {
+                throw new IOException("Dictionary " + id + " has a duplicate symbol: " + (int) symbol);
+            }
+            seen.set(symbol);
+            lengthCounts[length]++;
+        }
+
+        // Inégalité de Kraft (somme des 2^-longueur <= 1) : sinon les codes canoniques ne sont pas préfixes
+        long available = 1;
+        for (int length = 1; length <= 64; length++) {
+            available = available * 2 - lengthCounts[length];
+            if (available < 0) {
+                throw new IOException("Dictionary " + id + " code lengths violate the Kraft inequality");
+            }
+            // Assez de codes libres pour tous les symboles : inutile de continuer (et pas de dépassement)
+            if (available >= symbols) break;
+        }
+    }
+
+    /**
+     * Opens {@code file}; dictionaries are only decoded when first requested.
+     * Files up to 4 MiB are read into memory and the file is released at once.
+     * Larger files are memory-mapped, and the mapping lasts until the store is
+     * garbage collected: on Windows the file cannot be replaced (e.g. by
+     * {@link #trainInto}) while the store is still in use.
+     */
+    public static DictionaryStore open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= HEAP_READ_LIMIT) {
+                ByteBuffer data = ByteBuffer.allocate((int) size);
+                while (data.hasRemaining() && channel.read(data) >= 0) {
+                    // Lire jusqu'à la fin du fichier
+                }
+                data.flip();
+                return new DictionaryStore(data);
+            }
+            return new DictionaryStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public int[] getIds() {
+        return ids.clone();
+    }
+
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    public synchronized Map<Character, String> getCodes(int id) {
+        Map<Character, String> codes = cache.get(id);
+        if (codes == null) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index < 0) throw new IllegalArgumentException("Unknown dictionary ID: " + id);
+            codes = readCodes(offsets[index]);
+            cache.put(id, codes);
+        }
+        return new HashMap<>(codes);
+    }
+
+    private Map<Character, String> readCodes(int offset) {
+        int symbols = data.getInt(offset);
+        char[] chars = new char[symbols];
+        int[] lengths = new int[symbols];
+        for (int i = 0; i < symbols; i++) {
+            chars[i] = data.getChar(offset + 4 + i * 3);
+            lengths[i] = data.get(offset + 6 + i * 3) & 0xFF;
+        }
+        return canonicalCodes(chars, lengths);
+    }
+
+    /**
+     * Assigns canonical codes: symbols ordered by (code length, symbol) receive
+     * consecutive code values.
+     */
+    static Map<Character, String> canonicalCodes(char[] chars, int[] lengths) {
+        Integer[] order = new Integer[chars.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> lengths[a] != lengths[b] ? lengths[a] - lengths[b] : chars[a] - chars[b]);
+
+        Map<Character, String> codes = new HashMap<>();
+        long code = 0;
+        int previousLength = 0;
+        for (int i : order) {
+            code <<= lengths[i] - previousLength;
+            previousLength = lengths[i];
+            StringBuilder bits = new StringBuilder(Long.toBinaryString(code));
+            while (bits.length() < lengths[i]) bits.insert(0, '0');
+            codes.put(chars[i], bits.toString());
+            code++;
+        }
+        return codes;
+    }
+
+    /**
+     * Builds a dictionary from UTF-8 sample files. Printable ASCII, tab and line
+     * breaks always get a code so messages are not limited to the corpus alphabet.
+     */
+    public static Map<Character, String> train(List<Path> corpus) throws IOException {
+        Map<Character, Integer> freq = new HashMap<>();
+        for (char c = ' '; c <= '~'; c++) freq.put(c, 1);
+        freq.put('\t', 1);
+        freq.put('\n', 1);
+        freq.put('\r', 1);
+
+        for (Path file : corpus) {
+            String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            for (char c : text.toCharArray()) {
+                freq.put(c, freq.getOrDefault(c, 0) + 1);
+            }
+        }
+        Map<Character, String> codes = new HuffmanCoding().generateHuffmanCodes(freq);
+
+        // Conserver uniquement les longueurs : forme canonique, comme après relecture
+        char[] chars = new char[codes.size()];
+        int[] lengths = new int[codes.size()];
+        int i = 0;
+        for (Map.Entry<Character, String> entry : codes.entrySet()) {
+            chars[i] = entry.getKey();
+            lengths[i++] = entry.getValue().length();
+        }
+        return canonicalCodes(chars, lengths);
+    }
+
+    /**
+     * Trains a dictionary from {@code corpus} and stores it under {@code id} in
+     * {@code file}, replacing any dictionary with the same ID.
+     */
+    public static void trainInto(Path file, int id, List<Path> corpus) throws IOException {
+        checkId(id);
+        Map<Integer, Map<Character, String>> dictionaries = new TreeMap<>();
+        if (Files.exists(file)) {
+            // Lecture sans mapping pour pouvoir remplacer le fichier ensuite
+            DictionaryStore existing = new DictionaryStore(ByteBuffer.wrap(Files.readAllBytes(file)));
+            for (int existingId : existing.ids) {
+                dictionaries.put(existingId, existing.getCodes(existingId));
+            }
+        }
+        dictionaries.put(id, train(corpus));
+        write(file, dictionaries);
+    }
+
+    public static void write(Path file, Map<Integer, Map<Character, String>> dictionaries) throws IOException {
+        SortedMap<Integer, Map<Character, String>> sorted = new TreeMap<>(dictionaries);
+        for (int id : sorted.keySet()) checkId(id);
+        int size = HEADER_BYTES + sorted.size() * INDEX_ENTRY_BYTES;
+        for (Map<Character, String> codes : sorted.values()) {
+            size += 4 + codes.size() * 3;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC).putShort(VERSION).putInt(sorted.size());
+        int offset = HEADER_BYTES + sorted.size() * INDEX_ENTRY_BYTES;
+        for (Map.Entry<Integer, Map<Character, String>> entry : sorted.entrySet()) {
+            out.putInt(entry.getKey()).putInt(offset);
+            offset += 4 + entry.getValue().size() * 3;
+        }
+        for (Map<Character, String> codes : sorted.values()) {
+            out.putInt(codes.size());
+            for (Map.Entry<Character, String> code : codes.entrySet()) {
+                if (code.getValue().length() > 64) {
+                    throw new IllegalArgumentException("Code too long for '" + code.getKey() + "'");
+                }
+                out.putChar(code.getKey()).put((byte) code.getValue().length());
+            }
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, out.array());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void checkId(int id) {
+        if (id < 0) throw new IllegalArgumentException("Dictionary ID must be non-negative: " + id);
+    }
+}
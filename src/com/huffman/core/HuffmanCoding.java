@@ -1,9 +1,22 @@
 package com.huffman.core;
 
+import java.nio.CharBuffer;
 import java.util.*;
 
 public class HuffmanCoding {
+    // Contextes vus moins souvent partagent la table d'ordre 0
+    private static final int MIN_CONTEXT_OCCURRENCES = 4;
+
     private Map<Character, String> huffmanCodes = new HashMap<>();
+    private CodeTable codeTable;
+
+    private boolean contextModeling;
+    private Map<Character, Map<Character, String>> contextCodes = new HashMap<>();
+    private char[] contextKeys;
+    private CodeTable[] contextTables;
+
+    // Dernier caractère écrit par le décodage par blocs (-1 : début de message)
+    private int decodeContext = -1;
 
     private class Node implements Comparable<Node> {
         Character ch;
@@ -21,6 +34,18 @@ public class HuffmanCoding {
         }
     }
 
+    /**
+     * Selects the order-1 model for the next {@link #generateHuffmanCodes(String)}:
+     * each character is then coded with a table chosen by the preceding character.
+     */
+    public void setContextModeling(boolean contextModeling) {
+        this.contextModeling = contextModeling;
+    }
+
+    public boolean isContextModeling() {
+        return contextModeling;
+    }
+
     public Map<Character, String> generateHuffmanCodes(String text) {
         if (text == null || text.isEmpty()) return new HashMap<>();
 
@@ -29,6 +54,75 @@ public class HuffmanCoding {
             freq.put(c, freq.getOrDefault(c, 0) + 1);
         }
 
+        huffmanCodes.clear();
+        codeTable = null;
+        buildCodes(freq, huffmanCodes);
+
+        clearContextCodes();
+        if (contextModeling) {
+            generateContextCodes(text);
+        }
+        return huffmanCodes;
+    }
+
+    /**
+     * Builds order-0 codes from precomputed character frequencies, e.g. a training corpus.
+     */
+    public Map<Character, String> generateHuffmanCodes(Map<Character, Integer> freq) {
+        if (freq == null || freq.isEmpty()) return new HashMap<>();
+
+        huffmanCodes.clear();
+        codeTable = null;
+        buildCodes(freq, huffmanCodes);
+        clearContextCodes();
+        return huffmanCodes;
+    }
+
+    /**
+     * Installs an existing prefix-free dictionary, e.g. one loaded from a {@link DictionaryStore}.
+     */
+    public void setHuffmanCodes(Map<Character, String> codes) {
+        CodeTable table = new CodeTable(codes);
+        huffmanCodes = new HashMap<>(codes);
+        codeTable = table;
+        clearContextCodes();
+    }
+
+    private void clearContextCodes() {
+        contextCodes.clear();
+        contextKeys = null;
+        contextTables = null;
+        decodeContext = -1;
+    }
+
+    /**
+     * Starts a new message for {@link #decode(BitBuffer, char[], int)} and
+     * {@link #decode(BitBuffer, CharBuffer)}, which otherwise resume after the
+     * last character they wrote.
+     */
+    public void resetDecoder() {
+        decodeContext = -1;
+    }
+
+    private void generateContextCodes(String text) {
+        Map<Character, Map<Character, Integer>> contextFreq = new HashMap<>();
+        Map<Character, Integer> occurrences = new HashMap<>();
+        for (int i = 1; i < text.length(); i++) {
+            char context = text.charAt(i - 1);
+            Map<Character, Integer> freq = contextFreq.computeIfAbsent(context, k -> new HashMap<>());
+            freq.put(text.charAt(i), freq.getOrDefault(text.charAt(i), 0) + 1);
+            occurrences.put(context, occurrences.getOrDefault(context, 0) + 1);
+        }
+
+        for (Map.Entry<Character, Map<Character, Integer>> entry : contextFreq.entrySet()) {
+            if (occurrences.get(entry.getKey()) < MIN_CONTEXT_OCCURRENCES) continue;
+            Map<Character, String> codes = new HashMap<>();
+            buildCodes(entry.getValue(), codes);
+            contextCodes.put(entry.getKey(), codes);
+        }
+    }
+
+    private void buildCodes(Map<Character, Integer> freq, Map<Character, String> codes) {
         PriorityQueue<Node> pq = new PriorityQueue<>();
         for (Map.Entry<Character, Integer> entry : freq.entrySet()) {
             pq.add(new Node(entry.getKey(), entry.getValue()));
@@ -43,51 +137,171 @@ public class HuffmanCoding {
             pq.add(parent);
         }
 
-        huffmanCodes.clear();
-        generateCodes(pq.peek(), "");
-        return huffmanCodes;
+        generateCodes(pq.peek(), "", codes);
     }
 
-    private void generateCodes(Node node, String code) {
+    private void generateCodes(Node node, String code, Map<Character, String> codes) {
         if (node == null) return;
         if (node.ch != null) {
-            huffmanCodes.put(node.ch, code.isEmpty() ? "0" : code);
+            codes.put(node.ch, code.isEmpty() ? "0" : code);
             return;
         }
-        generateCodes(node.left, code + "0");
-        generateCodes(node.right, code + "1");
+        generateCodes(node.left, code + "0", codes);
+        generateCodes(node.right, code + "1", codes);
     }
 
     public String encode(String text) {
         if (huffmanCodes.isEmpty() || text == null) return "";
-        StringBuilder encoded = new StringBuilder();
-        for (char c : text.toCharArray()) {
-            encoded.append(huffmanCodes.get(c));
+        BitBuffer encoded = BitBuffer.allocate(encodedLength(text));
+        encode(text, encoded);
+        return encoded.flip().toBinaryString();
+    }
+
+    /**
+     * Number of bits {@link #encode(CharSequence, BitBuffer)} writes for {@code text}.
+     */
+    public int encodedLength(CharSequence text) {
+        if (huffmanCodes.isEmpty() || text == null) return 0;
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int codeLength = tableFor(text, i).codeLength(text.charAt(i));
+            if (codeLength == 0) {
+                throw new IllegalArgumentException("No Huffman code for character '" + text.charAt(i) + "'");
+            }
+            length += codeLength;
+        }
+        return length;
+    }
+
+    /**
+     * Appends the code of every character of {@code text} at the position of {@code dst}.
+     */
+    public void encode(CharSequence text, BitBuffer dst) {
+        if (huffmanCodes.isEmpty() || text == null) return;
+        for (int i = 0; i < text.length(); i++) {
+            tableFor(text, i).encode(text.charAt(i), dst);
         }
-        return encoded.toString();
     }
 
     public String decode(String encoded) {
         if (huffmanCodes.isEmpty() || encoded == null) return "";
-        
-        Map<String, Character> reverseCodes = new HashMap<>();
-        for (Map.Entry<Character, String> entry : huffmanCodes.entrySet()) {
-            reverseCodes.put(entry.getValue(), entry.getKey());
-        }
+        return decode(BitBuffer.fromString(encoded));
+    }
 
+    /**
+     * Decodes the bits between position and limit of {@code encoded}; trailing
+     * bits that do not form a complete code are ignored.
+     */
+    public String decode(BitBuffer encoded) {
+        if (huffmanCodes.isEmpty() || encoded == null) return "";
         StringBuilder decoded = new StringBuilder();
-        String currentCode = "";
-        
-        for (char bit : encoded.toCharArray()) {
-            currentCode += bit;
-            if (reverseCodes.containsKey(currentCode)) {
-                decoded.append(reverseCodes.get(currentCode));
-                currentCode = "";
-            }
+        CodeTable table = table();
+        while (encoded.hasRemaining()) {
+            int symbol = table.decode(encoded);
+            if (symbol < 0) break;
+            decoded.append((char) symbol);
+            table = contextTable((char) symbol);
         }
         return decoded.toString();
     }
 
+    /**
+     * Decodes into {@code dst} starting at {@code offset} until the bits run out
+     * or {@code dst} is full, and returns the number of characters written.
+     * {@code encoded} is left at the first undecoded code, and the next call
+     * continues the same message (see {@link #resetDecoder()}), so a message can
+     * be decoded chunk by chunk. Once the tables of the current dictionary are
+     * built by a first call, decoding allocates nothing.
+     */
+    public int decode(BitBuffer encoded, char[] dst, int offset) {
+        if (huffmanCodes.isEmpty() || encoded == null) return 0;
+        int written = 0;
+        CodeTable table = decodeTable();
+        while (offset + written < dst.length && encoded.hasRemaining()) {
+            int symbol = table.decode(encoded);
+            if (symbol < 0) break;
+            dst[offset + written++] = (char) symbol;
+            decodeContext = symbol;
+            table = contextTable((char) symbol);
+        }
+        return written;
+    }
+
+    /**
+     * {@link CharBuffer} variant of {@link #decode(BitBuffer, char[], int)}.
+     */
+    public int decode(BitBuffer encoded, CharBuffer dst) {
+        if (huffmanCodes.isEmpty() || encoded == null) return 0;
+        int written = 0;
+        CodeTable table = decodeTable();
+        while (dst.hasRemaining() && encoded.hasRemaining()) {
+            int symbol = table.decode(encoded);
+            if (symbol < 0) break;
+            dst.put((char) symbol);
+            written++;
+            decodeContext = symbol;
+            table = contextTable((char) symbol);
+        }
+        return written;
+    }
+
+    private CodeTable table() {
+        if (codeTable == null) codeTable = new CodeTable(huffmanCodes);
+        return codeTable;
+    }
+
+    private CodeTable decodeTable() {
+        return decodeContext < 0 ? table() : contextTable((char) decodeContext);
+    }
+
+    private CodeTable tableFor(CharSequence text, int index) {
+        return index == 0 ? table() : contextTable(text.charAt(index - 1));
+    }
+
+    /**
+     * Table used after {@code context}: its own table in order-1 mode, the
+     * order-0 table otherwise or for contexts too rare to be modeled.
+     */
+    private CodeTable contextTable(char context) {
+        if (contextCodes.isEmpty()) return table();
+        if (contextKeys == null) buildContextTables();
+        int index = Arrays.binarySearch(contextKeys, context);
+        return index < 0 ? table() : contextTables[index];
+    }
+
+    private void buildContextTables() {
+        char[] keys = new char[contextCodes.size()];
+        int i = 0;
+        for (char c : contextCodes.keySet()) keys[i++] = c;
+        Arrays.sort(keys);
+
+        CodeTable[] tables = new CodeTable[keys.length];
+        for (i = 0; i < keys.length; i++) {
+            tables[i] = new CodeTable(contextCodes.get(keys[i]));
+        }
+        contextTables = tables;
+        contextKeys = keys;
+    }
+
+    /**
+     * Total number of code entries across the order-0 table and every context table.
+     */
+    public int getTableEntryCount() {
+        int entries = huffmanCodes.size();
+        for (Map<Character, String> codes : contextCodes.values()) {
+            entries += codes.size();
+        }
+        return entries;
+    }
+
+    public Map<Character, Map<Character, String>> getContextCodes() {
+        Map<Character, Map<Character, String>> copy = new HashMap<>();
+        for (Map.Entry<Character, Map<Character, String>> entry : contextCodes.entrySet()) {
+            copy.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        }
+        return copy;
+    }
+
     public Map<Character, String> getHuffmanCodes() {
         return new HashMap<>(huffmanCodes);
     }
@@ -1,15 +1,20 @@
 package com.huffman.core;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.WritableRaster;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
 public class ImageProcessor {
     private BufferedImage image;
+    // Tampon de pixel réutilisé pour que l'extraction n'alloue rien
+    private Object pixel;
 
     public void setImage(BufferedImage image) {
         this.image = image;
+        this.pixel = null;
     }
 
     public BufferedImage getImage() {
@@ -47,20 +52,54 @@ public class ImageProcessor {
         return positions;
     }
 
+    /**
+     * Generates distinct pixel positions in row-major order, flattened as
+     * {@code x0, y0, x1, y1, ...}.
+     */
+    public int[] generatePixelPositions(int count) {
+        if (image == null) return new int[0];
+
+        int width = image.getWidth();
+        int[] pixels = Positions.distinctSorted(new Random(), count, width * image.getHeight());
+        int[] positions = new int[pixels.length * 2];
+        for (int i = 0; i < pixels.length; i++) {
+            positions[2 * i] = pixels[i] % width;
+            positions[2 * i + 1] = pixels[i] / width;
+        }
+        return positions;
+    }
+
     public String extractBits(List<int[]> positions) {
         if (image == null || positions == null || positions.isEmpty()) return "";
         
-        StringBuilder bits = new StringBuilder();
-        for (int[] pos : positions) {
-            try {
-                int rgb = image.getRGB(pos[0], pos[1]);
-                int red = (rgb >> 16) & 0xFF;
-                bits.append(red & 1);
-            } catch (ArrayIndexOutOfBoundsException e) {
-                // Ignore les positions invalides (hors de l'image)
-                continue;
-            }
+        BitBuffer bits = BitBuffer.allocate(positions.size());
+        extractBits(Positions.toPairArray(positions), bits);
+        return bits.flip().toBinaryString();
+    }
+
+    /**
+     * Writes the red-channel LSB of each (x, y) pair of {@code positions}
+     * ({@code x0, y0, x1, y1, ...}) into {@code dst} and returns the number of
+     * bits written. Positions outside the image are skipped.
+     */
+    public int extractBits(int[] positions, BitBuffer dst) {
+        if (image == null || positions == null) return 0;
+        
+        int width = image.getWidth();
+        int height = image.getHeight();
+        WritableRaster raster = image.getRaster();
+        ColorModel colorModel = image.getColorModel();
+        int written = 0;
+        for (int i = 0; i + 1 < positions.length; i += 2) {
+            int x = positions[i];
+            int y = positions[i + 1];
+            // Ignore les positions invalides (hors de l'image)
+            if (x < 0 || x >= width || y < 0 || y >= height) continue;
+            pixel = raster.getDataElements(x, y, pixel);
+            int red = colorModel.getRed(pixel);
+            dst.put((red & 1) != 0);
+            written++;
         }
-        return bits.toString();
+        return written;
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.huffman.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Primitive position arrays for the extraction paths, so that no boxed
+ * Integer is created per position.
+ */
+final class Positions {
+    private Positions() {
+    }
+
+    /**
+     * Returns {@code min(count, bound)} distinct values in {@code [0, bound)},
+     * sorted in ascending order.
+     */
+    static int[] distinctSorted(Random random, int count, int bound) {
+        int n = Math.max(0, Math.min(count, bound));
+        int[] picks = new int[n];
+
+        if (2L * n >= bound) {
+            // Échantillonnage séquentiel : un seul passage, résultat déjà trié
+            int needed = n;
+            for (int value = 0; needed > 0; value++) {
+                if (random.nextInt(bound - value) < needed) {
+                    picks[n - needed--] = value;
+                }
+            }
+            return picks;
+        }
+
+        // Tirages puis tri et suppression des doublons, jusqu'à n valeurs distinctes
+        int filled = 0;
+        while (filled < n) {
+            for (int i = filled; i < n; i++) picks[i] = random.nextInt(bound);
+            Arrays.sort(picks, 0, n);
+            filled = 1;
+            for (int i = 1; i < n; i++) {
+                if (picks[i] != picks[filled - 1]) picks[filled++] = picks[i];
+            }
+        }
+        return picks;
+    }
+
+    static int[] toArray(List<Integer> positions) {
+        int[] array = new int[positions.size()];
+        for (int i = 0; i < array.length; i++) array[i] = positions.get(i);
+        return array;
+    }
+
+    /**
+     * Flattens (x, y) pairs into {@code x0, y0, x1, y1, ...}.
+     */
+    static int[] toPairArray(List<int[]> positions) {
+        int[] array = new int[positions.size() * 2];
+        for (int i = 0; i < positions.size(); i++) {
+            array[2 * i] = positions.get(i)[0];
+            array[2 * i + 1] = positions.get(i)[1];
+        }
+        return array;
+    }
+}
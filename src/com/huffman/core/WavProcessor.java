@@ -1,23 +1,94 @@
 package com.huffman.core;
 
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
-import java.io.ByteArrayInputStream;
+import javax.sound.sampled.AudioSystem;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
 public class WavProcessor {
+    private static final int DEFAULT_SAMPLE_BITS = 8;
+
     private byte[] audioData;
+    private AudioFormat format;
+
+    // Vues typées sur les échantillons (selon la taille et l'ordre des octets)
+    private int sampleBits;
+    private int bytesPerSample;
+    // Bits de remplissage sous l'échantillon quand le conteneur est plus large (ex. 24 bits dans 32)
+    private int paddingBits;
+    private int lsbByteOffset;
+    private int sampleCount;
+    private ShortBuffer shortSamples;
+    private IntBuffer intSamples;
+    private boolean bigEndian;
 
     public void setAudioData(AudioInputStream audioInputStream) throws IOException {
         this.audioData = audioInputStream.readAllBytes();
+        this.format = audioInputStream.getFormat();
+        buildSampleViews();
     }
 
     public byte[] getAudioData() {
         return audioData;
     }
 
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    public int getChannels() {
+        return format == null ? 0 : Math.max(1, format.getChannels());
+    }
+
+    public int getSampleSizeInBits() {
+        return sampleBits;
+    }
+
+    /**
+     * Number of individual samples (frames x channels) in the loaded audio.
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    private void buildSampleViews() {
+        shortSamples = null;
+        intSamples = null;
+
+        sampleBits = format == null ? DEFAULT_SAMPLE_BITS : format.getSampleSizeInBits();
+        if (sampleBits <= 0) sampleBits = DEFAULT_SAMPLE_BITS;
+        bytesPerSample = (sampleBits + 7) / 8;
+        // Le pas entre échantillons est celui du conteneur, donné par la taille de trame
+        if (format != null && format.getFrameSize() != AudioSystem.NOT_SPECIFIED
+                && format.getFrameSize() / getChannels() >= bytesPerSample) {
+            bytesPerSample = format.getFrameSize() / getChannels();
+        }
+        // Les bits valides sont cadrés à gauche dans le conteneur
+        paddingBits = bytesPerSample * 8 - sampleBits;
+        sampleCount = audioData.length / bytesPerSample;
+
+        boolean bigEndian = format != null && format.isBigEndian();
+        ByteOrder order = bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        ByteBuffer buffer = ByteBuffer.wrap(audioData, 0, sampleCount * bytesPerSample).order(order);
+
+        if (bytesPerSample == 2) {
+            shortSamples = buffer.asShortBuffer();
+        } else if (bytesPerSample == 4) {
+            intSamples = buffer.asIntBuffer();
+        }
+        // Pour les autres tailles, l'octet qui contient le bit de poids faible est lu directement
+        int lsbByte = paddingBits / 8;
+        lsbByteOffset = bigEndian ? bytesPerSample - 1 - lsbByte : lsbByte;
+        this.bigEndian = bigEndian;
+    }
+
     public List<Integer> generatePositions(int count, int step) {
         if (audioData == null) return new ArrayList<>();
         
@@ -39,27 +110,97 @@ public class WavProcessor {
         return positions;
     }
 
+    /**
+     * Generates distinct, sorted sample indices. A sample index addresses one
+     * channel of one frame: {@code frame * channels + channel}.
+     */
+    public int[] generateSamplePositions(int count) {
+        if (audioData == null) return new int[0];
+
+        // Générer des indices d'échantillons aléatoires distincts, sans Integer intermédiaire
+        return Positions.distinctSorted(new Random(), count, sampleCount);
+    }
+
     public String extractBits(List<Integer> positions) {
         if (audioData == null || positions == null || positions.isEmpty()) return "";
         
-        StringBuilder bits = new StringBuilder();
-        for (int pos : positions) {
-            try {
-                // Calculate byte and bit position
-                int byteIndex = pos / 8;
-                int bitIndex = pos % 8;
-                
-                if (byteIndex < audioData.length) {
-                    int byteValue = audioData[byteIndex] & 0xFF;
-                    // Extract the specific bit (LSB is at bitIndex 7, MSB at bitIndex 0)
-                    int bit = (byteValue >> (7 - bitIndex)) & 1;
-                    bits.append(bit);
-                }
-            } catch (Exception e) {
-                // Ignore invalid positions
-                continue;
-            }
+        BitBuffer bits = BitBuffer.allocate(positions.size());
+        extractBits(Positions.toArray(positions), bits);
+        return bits.flip().toBinaryString();
+    }
+
+    /**
+     * Writes the bit at each raw bit offset into {@code dst} and returns the
+     * number of bits written. Offsets past the end of the data are skipped.
+     */
+    public int extractBits(int[] positions, BitBuffer dst) {
+        if (audioData == null || positions == null) return 0;
+
+        int written = 0;
+        for (int i = 0; i < positions.length; i++) {
+            int pos = positions[i];
+            // Calculate byte and bit position
+            int byteIndex = pos / 8;
+            int bitIndex = pos % 8;
+
+            // Ignore invalid positions
+            if (pos < 0 || byteIndex >= audioData.length) continue;
+            // Extract the specific bit (LSB is at bitIndex 7, MSB at bitIndex 0)
+            dst.put(((audioData[byteIndex] >> (7 - bitIndex)) & 1) != 0);
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Extracts the least significant bit of each addressed sample, honouring the
+     * sample size, byte order and channel interleaving of the loaded format.
+     */
+    public String extractSampleBits(int[] samplePositions) {
+        if (audioData == null || samplePositions == null || samplePositions.length == 0) return "";
+
+        BitBuffer bits = BitBuffer.allocate(samplePositions.length);
+        extractSampleBits(samplePositions, bits);
+        return bits.flip().toBinaryString();
+    }
+
+    /**
+     * Sample-indexed variant of {@link #extractBits(int[], BitBuffer)}.
+     */
+    public int extractSampleBits(int[] samplePositions, BitBuffer dst) {
+        if (audioData == null || samplePositions == null) return 0;
+
+        int written = 0;
+        for (int i = 0; i < samplePositions.length; i++) {
+            int sample = samplePositions[i];
+            // Ignore les échantillons hors limites
+            if (sample < 0 || sample >= sampleCount) continue;
+            dst.put(sampleLsb(sample) != 0);
+            written++;
+        }
+        return written;
+    }
+
+    int sampleLsb(int sample) {
+        if (shortSamples != null) return (shortSamples.get(sample) >> paddingBits) & 1;
+        if (intSamples != null) return (intSamples.get(sample) >> paddingBits) & 1;
+        return (audioData[sample * bytesPerSample + lsbByteOffset] >> (paddingBits % 8)) & 1;
+    }
+
+    /**
+     * Raw bits of one sample with container padding removed, sign-extended for
+     * 16- and 32-bit containers; only the low {@link #getSampleSizeInBits()} bits
+     * are meaningful.
+     */
+    int sampleValue(int sample) {
+        if (shortSamples != null) return shortSamples.get(sample) >> paddingBits;
+        if (intSamples != null) return intSamples.get(sample) >> paddingBits;
+        int start = sample * bytesPerSample;
+        int value = 0;
+        for (int b = 0; b < bytesPerSample; b++) {
+            int index = bigEndian ? start + b : start + bytesPerSample - 1 - b;
+            value = (value << 8) | (audioData[index] & 0xFF);
         }
-        return bits.toString();
+        return value >>> paddingBits;
     }
-}
\ No newline at end of file
+}
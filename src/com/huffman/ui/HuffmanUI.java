@@ -1,5 +1,8 @@
 package com.huffman.ui;
 
+import com.huffman.core.BitBuffer;
+import com.huffman.core.CarrierAnalyzer;
+import com.huffman.core.DictionaryStore;
 import com.huffman.core.HuffmanCoding;
 import com.huffman.core.ImageProcessor;
 import com.huffman.core.WavProcessor;
@@ -11,17 +14,34 @@ import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import java.awt.image.BufferedImage;
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
 
 public class HuffmanUI extends JFrame {
+    // Coût estimé d'une entrée de table : symbole (16 bits) + longueur du code (8 bits)
+    private static final int TABLE_ENTRY_BITS = 24;
+    // Nombre maximal de caractères décodés par passe lors de la mesure du débit
+    private static final int BENCHMARK_CHARS = 1 << 16;
+
     private JTextArea inputTextArea, outputTextArea;
-    private JButton encodeButton, decodeButton, loadImageButton, loadWavButton, showStatsButton, decodeFromDictButton;
+    private JButton encodeButton, decodeButton, loadImageButton, loadWavButton, showStatsButton, decodeFromDictButton, analyzeButton;
+    private JCheckBox contextModelCheckBox;
+    private JComboBox<String> dictionaryComboBox;
     private JLabel imageLabel, statusLabel;
     private JPanel imagePanel;
     private HuffmanCoding huffman = new HuffmanCoding();
     private ImageProcessor imageProcessor = new ImageProcessor();
     private WavProcessor wavProcessor = new WavProcessor();
+    private CarrierAnalyzer carrierAnalyzer;
+    private File imageFile, wavFile;
+    private DictionaryStore dictionaryStore;
+    private int[] storedDictionaryIds = new int[0];
+    private Map<Integer, HuffmanCoding> storedCodecs = new HashMap<>();
 
     public HuffmanUI() {
         setTitle("Huffman Coding & Steganography Tool");
@@ -59,6 +79,13 @@ public class HuffmanUI extends JFrame {
         loadWavButton = createButton("Load WAV", "Load a WAV file for steganography");
         showStatsButton = createButton("Compression Stats", "Show encoding statistics");
         decodeFromDictButton = createButton("Decode from Dictionary", "Decode a binary sequence using current dictionary");
+        analyzeButton = createButton("Carrier Analysis", "Show capacity and LSB statistics of the loaded image or WAV");
+        contextModelCheckBox = new JCheckBox("Order-1 context");
+        contextModelCheckBox.setToolTipText("Use one code table per preceding character");
+        contextModelCheckBox.setFocusPainted(false);
+        dictionaryComboBox = new JComboBox<>();
+        dictionaryComboBox.setToolTipText("Dictionary used to encode and decode messages");
+        dictionaryComboBox.addItem("Per-message dictionary");
         
         buttonPanel.add(encodeButton);
         buttonPanel.add(loadImageButton);
@@ -66,6 +93,9 @@ public class HuffmanUI extends JFrame {
         buttonPanel.add(decodeButton);
         buttonPanel.add(showStatsButton);
         buttonPanel.add(decodeFromDictButton);
+        buttonPanel.add(analyzeButton);
+        buttonPanel.add(contextModelCheckBox);
+        buttonPanel.add(dictionaryComboBox);
         
         // Status bar
         statusLabel = new JLabel("Ready");
@@ -76,6 +106,30 @@ public class HuffmanUI extends JFrame {
         topPanel.add(inputPanel, BorderLayout.CENTER);
         topPanel.add(buttonPanel, BorderLayout.SOUTH);
         
+        // Add components to main split pane
+        mainSplitPane.setTopComponent(topPanel);
+        mainSplitPane.setBottomComponent(createOutputPanel());
+        
+        // Add to frame
+        add(mainSplitPane, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+        
+        // Register event handlers
+        encodeButton.addActionListener(e -> encodeText());
+        decodeButton.addActionListener(e -> openDecodeOptionsPopup());
+        loadImageButton.addActionListener(e -> loadImage());
+        loadWavButton.addActionListener(e -> loadWav());
+        showStatsButton.addActionListener(e -> showEncodedInfo());
+        decodeFromDictButton.addActionListener(e -> openDecodePopup());
+        analyzeButton.addActionListener(e -> analyzeCarriers());
+        
+        loadDictionaryStore();
+        
+        // Center on screen
+        setLocationRelativeTo(null);
+    }
+    
+    private JPanel createOutputPanel() {
         // Bottom panel (output and image)
         JPanel bottomPanel = new JPanel(new BorderLayout(5, 5));
         bottomPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 10, 10));
@@ -105,24 +159,7 @@ public class HuffmanUI extends JFrame {
         outputSplitPane.setResizeWeight(0.7);
         bottomPanel.add(outputSplitPane, BorderLayout.CENTER);
         
-        // Add components to main split pane
-        mainSplitPane.setTopComponent(topPanel);
-        mainSplitPane.setBottomComponent(bottomPanel);
-        
-        // Add to frame
-        add(mainSplitPane, BorderLayout.CENTER);
-        add(statusLabel, BorderLayout.SOUTH);
-        
-        // Register event handlers
-        encodeButton.addActionListener(e -> encodeText());
-        decodeButton.addActionListener(e -> openDecodeOptionsPopup());
-        loadImageButton.addActionListener(e -> loadImage());
-        loadWavButton.addActionListener(e -> loadWav());
-        showStatsButton.addActionListener(e -> showEncodedInfo());
-        decodeFromDictButton.addActionListener(e -> openDecodePopup());
-        
-        // Center on screen
-        setLocationRelativeTo(null);
+        return bottomPanel;
     }
     
     private JButton createButton(String text, String tooltip) {
@@ -132,6 +169,38 @@ public class HuffmanUI extends JFrame {
         return button;
     }
 
+    private void loadDictionaryStore() {
+        Path storeFile = Paths.get(DictionaryStore.DEFAULT_FILE);
+        if (!Files.exists(storeFile)) return;
+
+        try {
+            dictionaryStore = DictionaryStore.open(storeFile);
+            storedDictionaryIds = dictionaryStore.getIds();
+            for (int id : storedDictionaryIds) {
+                dictionaryComboBox.addItem("Stored dictionary #" + id);
+            }
+        } catch (IOException e) {
+            // Le magasin est facultatif : continuer avec les dictionnaires par message
+            dictionaryStore = null;
+            storedDictionaryIds = new int[0];
+        }
+    }
+
+    private int selectedDictionaryId() {
+        int index = dictionaryComboBox.getSelectedIndex();
+        return index <= 0 ? -1 : storedDictionaryIds[index - 1];
+    }
+
+    private HuffmanCoding codec() {
+        int id = selectedDictionaryId();
+        if (id < 0) return huffman;
+        return storedCodecs.computeIfAbsent(id, key -> {
+            HuffmanCoding stored = new HuffmanCoding();
+            stored.setHuffmanCodes(dictionaryStore.getCodes(key));
+            return stored;
+        });
+    }
+
     private void encodeText() {
         String text = inputTextArea.getText();
         if (text.isEmpty()) {
@@ -140,9 +209,22 @@ public class HuffmanUI extends JFrame {
         }
 
         try {
+            int dictionaryId = selectedDictionaryId();
+            if (dictionaryId >= 0) {
+                String encoded = codec().encode(text);
+                outputTextArea.setText("Encoded text:\n" + encoded + "\n\nDictionary ID: " + dictionaryId);
+                updateStatus("Text encoded with stored dictionary #" + dictionaryId);
+                return;
+            }
+
+            huffman.setContextModeling(contextModelCheckBox.isSelected());
             huffman.generateHuffmanCodes(text);
             String encoded = huffman.encode(text);
-            outputTextArea.setText("Encoded text:\n" + encoded + "\n\nHuffman Dictionary:\n" + huffman.getHuffmanCodes());
+            String dictionary = "\n\nHuffman Dictionary:\n" + huffman.getHuffmanCodes();
+            if (huffman.isContextModeling()) {
+                dictionary += "\n\nContext Dictionaries:\n" + huffman.getContextCodes();
+            }
+            outputTextArea.setText("Encoded text:\n" + encoded + dictionary);
             updateStatus("Text encoded successfully!");
         } catch (Exception ex) {
             showError("Encoding error: " + ex.getMessage());
@@ -165,6 +247,7 @@ public class HuffmanUI extends JFrame {
             try {
                 BufferedImage img = ImageIO.read(fileChooser.getSelectedFile());
                 imageProcessor.setImage(img);
+                imageFile = fileChooser.getSelectedFile();
                 
                 // Resize image for display if needed
                 ImageIcon icon = new ImageIcon(img);
@@ -196,7 +279,11 @@ public class HuffmanUI extends JFrame {
             try {
                 File wavFile = fileChooser.getSelectedFile();
                 AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(wavFile);
-                wavProcessor.setAudioData(audioInputStream);
+                // Nouveau processeur : une analyse en cours garde l'ancien
+                WavProcessor loaded = new WavProcessor();
+                loaded.setAudioData(audioInputStream);
+                wavProcessor = loaded;
+                this.wavFile = wavFile;
                 audioInputStream.close();
                 imageLabel.setIcon(null);
                 imageLabel.setText("WAV file loaded");
@@ -207,46 +294,100 @@ public class HuffmanUI extends JFrame {
         }
     }
 
-    private void decodeFromImage(List<int[]> positions) {
+    private void decodeFromImage(int[] positions) {
         if (imageProcessor.getImage() == null) {
             showError("Please load an image first!");
             return;
         }
-        
-        try {
-            String bits = imageProcessor.extractBits(positions);
-            if (!bits.isEmpty()) {
-                String decodedText = huffman.decode(bits);
-                outputTextArea.setText("Extracted bits: " + bits + "\n\nDecoded text: " + decodedText);
-                updateStatus("Message decoded from image successfully!");
-            } else {
-                showError("No data found in the image or invalid positions!");
-            }
-        } catch (Exception ex) {
-            showError("Decoding error: " + ex.getMessage());
+        decodeFromMedia("image", positions.length / 2, bits -> imageProcessor.extractBits(positions, bits));
+    }
+
+    private void decodeFromWav(int[] positions) {
+        if (wavProcessor.getAudioData() == null) {
+            showError("Please load a WAV file first!");
+            return;
         }
+        decodeFromMedia("WAV", positions.length, bits -> wavProcessor.extractBits(positions, bits));
     }
 
-    private void decodeFromWav(List<Integer> positions) {
+    private void decodeFromWavSamples(int[] samplePositions) {
         if (wavProcessor.getAudioData() == null) {
             showError("Please load a WAV file first!");
             return;
         }
-        
+        decodeFromMedia("WAV", samplePositions.length, bits -> wavProcessor.extractSampleBits(samplePositions, bits));
+    }
+
+    // Extrait au plus maxBits bits avec extractor puis les décode avec le dictionnaire sélectionné
+    private void decodeFromMedia(String media, int maxBits, ToIntFunction<BitBuffer> extractor) {
         try {
-            String bits = wavProcessor.extractBits(positions);
-            if (!bits.isEmpty()) {
-                String decodedText = huffman.decode(bits);
-                outputTextArea.setText("Extracted bits: " + bits + "\n\nDecoded text: " + decodedText);
-                updateStatus("Message decoded from WAV successfully!");
+            BitBuffer bits = BitBuffer.allocate(maxBits);
+            extractor.applyAsInt(bits);
+            bits.flip();
+            if (bits.hasRemaining()) {
+                String decodedText = codec().decode(bits.slice());
+                outputTextArea.setText("Extracted bits: " + bits.toBinaryString() + "\n\nDecoded text: " + decodedText);
+                updateStatus("Message decoded from " + media + " successfully!");
             } else {
-                showError("No data found in the WAV or invalid positions!");
+                showError("No data found in the " + media + " or invalid positions!");
             }
         } catch (Exception ex) {
             showError("Decoding error: " + ex.getMessage());
         }
     }
 
+    private void analyzeCarriers() {
+        if (imageProcessor.getImage() == null && wavProcessor.getAudioData() == null) {
+            showError("Please load an image or WAV file first!");
+            return;
+        }
+
+        if (carrierAnalyzer == null) carrierAnalyzer = new CarrierAnalyzer();
+
+        // Porteuses figées au lancement : un chargement pendant l'analyse ne les modifie pas
+        BufferedImage image = imageProcessor.getImage();
+        File analyzedImageFile = imageFile;
+        WavProcessor wav = wavProcessor.getAudioData() != null ? wavProcessor : null;
+        File analyzedWavFile = wavFile;
+
+        String header = "CARRIER ANALYSIS\n----------------\n\n";
+        String pending = header + "Analyzing...\n";
+        outputTextArea.setText(pending);
+        analyzeButton.setEnabled(false);
+        updateStatus("Analyzing carriers...");
+
+        // Analyse complète hors de l'EDT pour ne pas figer l'interface
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() {
+                StringBuilder info = new StringBuilder(header);
+                if (image != null) {
+                    info.append(carrierAnalyzer.analyzeImage(analyzedImageFile, image).report()).append("\n");
+                }
+                if (wav != null) {
+                    info.append(carrierAnalyzer.analyzeWav(analyzedWavFile, wav).report());
+                }
+                return info.toString();
+            }
+
+            @Override
+            protected void done() {
+                analyzeButton.setEnabled(true);
+                try {
+                    String report = get();
+                    // Ne pas écraser un résultat affiché entre-temps
+                    if (!outputTextArea.getText().equals(pending)) return;
+                    outputTextArea.setText(report);
+                    outputTextArea.setCaretPosition(0);
+                    updateStatus("Carrier analysis complete");
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    showError("Analysis error: " + cause.getMessage());
+                }
+            }
+        }.execute();
+    }
+
     private void showEncodedInfo() {
         String text = inputTextArea.getText();
         if (text.isEmpty()) {
@@ -255,11 +396,17 @@ public class HuffmanUI extends JFrame {
         }
 
         try {
-            if (huffman.getHuffmanCodes().isEmpty()) {
-                huffman.generateHuffmanCodes(text);
+            // Modèle local : le dictionnaire du dernier message encodé reste intact
+            HuffmanCoding model;
+            if (selectedDictionaryId() >= 0) {
+                model = codec();
+            } else {
+                model = new HuffmanCoding();
+                model.setContextModeling(contextModelCheckBox.isSelected());
+                model.generateHuffmanCodes(text);
             }
-            
-            String encoded = huffman.encode(text);
+
+            String encoded = model.encode(text);
             
             StringBuilder info = new StringBuilder();
             info.append("HUFFMAN COMPRESSION STATISTICS\n");
@@ -269,17 +416,84 @@ public class HuffmanUI extends JFrame {
             info.append("Original size (bits): ").append(text.length() * 8).append("\n");
             info.append("Encoded size (bits): ").append(encoded.length()).append("\n");
             info.append("Compression ratio: ").append(String.format("%.2f%%", (1 - (double)encoded.length() / (text.length() * 8)) * 100)).append("\n\n");
-            info.append("Huffman Dictionary:\n").append(huffman.getHuffmanCodes());
+            
+            StringBuilder dictionary = new StringBuilder();
+            dictionary.append("Huffman Dictionary:\n").append(model.getHuffmanCodes());
+            if (model.isContextModeling()) {
+                dictionary.append("\n\nContext Dictionaries:\n").append(model.getContextCodes());
+            }
+
+            String header = info.toString();
+            String pending = header + "MODEL COMPARISON: measuring...\n\n" + dictionary;
+            outputTextArea.setText(pending);
+            updateStatus("Compression statistics calculated, measuring decode throughput...");
+
+            // Mesure du débit hors de l'EDT pour ne pas figer l'interface
+            new SwingWorker<String, Void>() {
+                @Override
+                protected String doInBackground() {
+                    StringBuilder comparison = new StringBuilder();
+                    comparison.append("MODEL COMPARISON (table cost ~").append(TABLE_ENTRY_BITS).append(" bits/entry)\n");
+                    appendModelStats(comparison, "Order-0", false, text);
+                    appendModelStats(comparison, "Order-1", true, text);
+                    return comparison.append("\n").toString();
+                }
 
-            outputTextArea.setText(info.toString());
-            updateStatus("Compression statistics calculated");
+                @Override
+                protected void done() {
+                    // Ne pas écraser un résultat affiché entre-temps
+                    if (!outputTextArea.getText().equals(pending)) return;
+                    try {
+                        outputTextArea.setText(header + get() + dictionary);
+                        updateStatus("Compression statistics calculated");
+                    } catch (Exception ex) {
+                        showError("Error measuring throughput: " + ex.getMessage());
+                    }
+                }
+            }.execute();
         } catch (Exception ex) {
             showError("Error calculating statistics: " + ex.getMessage());
         }
     }
 
+    private void appendModelStats(StringBuilder info, String label, boolean contextModeling, String text) {
+        HuffmanCoding model = new HuffmanCoding();
+        model.setContextModeling(contextModeling);
+        model.generateHuffmanCodes(text);
+
+        BitBuffer encoded = BitBuffer.allocate(model.encodedLength(text));
+        model.encode(text, encoded);
+        encoded.flip();
+
+        // Chaque passe décode au plus BENCHMARK_CHARS caractères
+        char[] decoded = new char[Math.min(text.length(), BENCHMARK_CHARS)];
+        measureDecode(model, encoded, decoded);
+        long[] measured = measureDecode(model, encoded, decoded);
+        long decodedChars = measured[0];
+        long elapsed = measured[1];
+
+        int entries = model.getTableEntryCount();
+        info.append(String.format("%s: %d bits + %d table entries = %d bits total, decode %.2f Mchar/s%n",
+            label, encoded.limit(), entries, encoded.limit() + (long) entries * TABLE_ENTRY_BITS,
+            decodedChars * 1000.0 / elapsed));
+    }
+
+    // Décode en boucle pendant au moins 20 ms ; le premier appel sert de préchauffage
+    private static long[] measureDecode(HuffmanCoding model, BitBuffer encoded, char[] decoded) {
+        long start = System.nanoTime();
+        long elapsed;
+        long decodedChars = 0;
+        do {
+            encoded.rewind();
+            model.resetDecoder();
+            decodedChars += model.decode(encoded, decoded, 0);
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < 20_000_000L);
+        return new long[]{decodedChars, elapsed};
+    }
+
     private void openDecodePopup() {
-        if (huffman.getHuffmanCodes().isEmpty()) {
+        if (codec().getHuffmanCodes().isEmpty()) {
             showError("Please encode some text first to generate a dictionary!");
             return;
         }
@@ -313,7 +527,7 @@ public class HuffmanUI extends JFrame {
                     "Input Required", JOptionPane.WARNING_MESSAGE);
             } else {
                 try {
-                    String decodedText = huffman.decode(binaryInput);
+                    String decodedText = codec().decode(binaryInput);
                     outputTextArea.setText("Binary input: " + binaryInput + "\n\nDecoded text: " + decodedText);
                     updateStatus("Binary sequence decoded successfully");
                     decodeDialog.dispose();
@@ -355,7 +569,7 @@ public class HuffmanUI extends JFrame {
         JPanel optionsPanel = new JPanel(new GridLayout(4, 1, 5, 5));
         JButton generateImageButton = new JButton("Generate Image Positions (Auto)");
         JButton manualImageButton = new JButton("Enter Image Positions Manually");
-        JButton generateWavButton = new JButton("Generate WAV Positions (Auto)");
+        JButton generateWavButton = new JButton("Generate WAV Sample Positions (Auto)");
         JButton manualWavButton = new JButton("Enter WAV Positions Manually");
         
         generateImageButton.setEnabled(imageProcessor.getImage() != null);
@@ -364,7 +578,7 @@ public class HuffmanUI extends JFrame {
         manualWavButton.setEnabled(wavProcessor.getAudioData() != null);
         
         generateImageButton.addActionListener(e -> {
-            List<int[]> positions = imageProcessor.generatePositions(200, 15);
+            int[] positions = imageProcessor.generatePixelPositions(200);
             decodeFromImage(positions);
             optionsDialog.dispose();
         });
@@ -375,8 +589,8 @@ public class HuffmanUI extends JFrame {
         });
         
         generateWavButton.addActionListener(e -> {
-            List<Integer> positions = wavProcessor.generatePositions(100, 15);
-            decodeFromWav(positions);
+            int[] positions = wavProcessor.generateSamplePositions(100);
+            decodeFromWavSamples(positions);
             optionsDialog.dispose();
         });
         
@@ -436,7 +650,7 @@ public class HuffmanUI extends JFrame {
                     "Input Required", JOptionPane.WARNING_MESSAGE);
             } else {
                 try {
-                    List<int[]> positions = parseImagePositions(positionsText);
+                    int[] positions = parseImagePositions(positionsText);
                     decodeFromImage(positions);
                     manualDialog.dispose();
                 } catch (Exception ex) {
@@ -490,7 +704,7 @@ public class HuffmanUI extends JFrame {
                     "Input Required", JOptionPane.WARNING_MESSAGE);
             } else {
                 try {
-                    List<Integer> positions = parseWavPositions(positionsText);
+                    int[] positions = parseWavPositions(positionsText);
                     decodeFromWav(positions);
                     manualDialog.dispose();
                 } catch (Exception ex) {
@@ -512,9 +726,11 @@ public class HuffmanUI extends JFrame {
         manualDialog.setVisible(true);
     }
 
-    private List<int[]> parseImagePositions(String positionsText) throws Exception {
-        List<int[]> positions = new ArrayList<>();
+    // Positions à plat : x0, y0, x1, y1, ...
+    private int[] parseImagePositions(String positionsText) throws Exception {
         String[] lines = positionsText.split("\n");
+        int[] positions = new int[lines.length * 2];
+        int count = 0;
         
         for (String line : lines) {
             line = line.trim();
@@ -526,23 +742,23 @@ public class HuffmanUI extends JFrame {
             }
             
             try {
-                int x = Integer.parseInt(parts[0].trim());
-                int y = Integer.parseInt(parts[1].trim());
-                positions.add(new int[]{x, y});
+                positions[count++] = Integer.parseInt(parts[0].trim());
+                positions[count++] = Integer.parseInt(parts[1].trim());
             } catch (NumberFormatException e) {
                 throw new Exception("Invalid number format in line: " + line);
             }
         }
         
-        if (positions.isEmpty()) {
+        if (count == 0) {
             throw new Exception("No valid positions provided");
         }
-        return positions;
+        return Arrays.copyOf(positions, count);
     }
 
-    private List<Integer> parseWavPositions(String positionsText) throws Exception {
-        List<Integer> positions = new ArrayList<>();
+    private int[] parseWavPositions(String positionsText) throws Exception {
         String[] lines = positionsText.split("\n");
+        int[] positions = new int[lines.length];
+        int count = 0;
         
         for (String line : lines) {
             line = line.trim();
@@ -553,16 +769,16 @@ public class HuffmanUI extends JFrame {
                 if (pos < 0) {
                     throw new Exception("Position must be non-negative: " + line);
                 }
-                positions.add(pos);
+                positions[count++] = pos;
             } catch (NumberFormatException e) {
                 throw new Exception("Invalid number format in line: " + line);
             }
         }
         
-        if (positions.isEmpty()) {
+        if (count == 0) {
             throw new Exception("No valid positions provided");
         }
-        return positions;
+        return Arrays.copyOf(positions, count);
     }
     
     private void showError(String message) {
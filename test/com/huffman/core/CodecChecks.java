@@ -0,0 +1,215 @@
+package com.huffman.core;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Build-time checks run by run.bat: chunked decoding must give the same text
+ * as a single pass, the steady-state decode and extraction paths must
+ * allocate nothing, and position generators must not box each position.
+ * Exits with status 1 on any failure.
+ */
+public class CodecChecks {
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 100;
+    private static final int MEASURED_ROUNDS = 5;
+    // Taille d'un Integer (JVM 64 bits, références compressées) : plafond par valeur générée
+    private static final int BOXED_INTEGER_BYTES = 16;
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        String text = sampleText();
+        checkChunkedDecode("order-0", text, false);
+        checkChunkedDecode("order-1", text, true);
+        checkSplitDecode("order-0", "abracadabra alakazam", false);
+        checkSplitDecode("order-1", "abracadabra alakazam", true);
+        checkSplitDecode("order-1 log", text.substring(0, 300), true);
+        checkZeroAllocation(text);
+
+        if (failures > 0) {
+            System.out.println(failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All codec checks passed");
+    }
+
+    private static String sampleText() {
+        String[] words = {"INFO ", "WARN ", "request ", "served ", "in ", "ms\n", "user=", "é "};
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 1420) {
+            sb.append(words[random.nextInt(words.length)]);
+            if (random.nextInt(4) == 0) sb.append(random.nextInt(1000));
+        }
+        return sb.toString();
+    }
+
+    private static HuffmanCoding codec(String text, boolean contextModeling) {
+        HuffmanCoding huffman = new HuffmanCoding();
+        huffman.setContextModeling(contextModeling);
+        huffman.generateHuffmanCodes(text);
+        return huffman;
+    }
+
+    private static BitBuffer encode(HuffmanCoding huffman, String text) {
+        BitBuffer bits = BitBuffer.allocate(huffman.encodedLength(text));
+        huffman.encode(text, bits);
+        return bits.flip();
+    }
+
+    // Décodage par blocs de 7 caractères, dans un char[] puis un CharBuffer
+    private static void checkChunkedDecode(String label, String text, boolean contextModeling) {
+        HuffmanCoding huffman = codec(text, contextModeling);
+        BitBuffer bits = encode(huffman, text);
+
+        char[] chunk = new char[7];
+        StringBuilder decoded = new StringBuilder();
+        int n;
+        while ((n = huffman.decode(bits, chunk, 0)) > 0) {
+            decoded.append(chunk, 0, n);
+        }
+        check(label + " chunked char[] decode", decoded.toString().equals(text));
+
+        bits.rewind();
+        huffman.resetDecoder();
+        CharBuffer buffer = CharBuffer.allocate(7);
+        decoded.setLength(0);
+        while (huffman.decode(bits, buffer) > 0) {
+            buffer.flip();
+            decoded.append(buffer);
+            buffer.clear();
+        }
+        check(label + " chunked CharBuffer decode", decoded.toString().equals(text));
+    }
+
+    // Coupe les bits en deux tranches à chaque position et reprend là où le premier appel s'est arrêté
+    private static void checkSplitDecode(String label, String text, boolean contextModeling) {
+        HuffmanCoding huffman = codec(text, contextModeling);
+        BitBuffer bits = encode(huffman, text);
+        char[] decoded = new char[text.length()];
+
+        int badCuts = 0;
+        for (int cut = 0; cut <= bits.limit(); cut++) {
+            huffman.resetDecoder();
+            BitBuffer first = bits.slice(0, cut);
+            int n = huffman.decode(first, decoded, 0);
+            int resume = first.position();
+            BitBuffer rest = bits.slice(resume, bits.limit() - resume);
+            n += huffman.decode(rest, decoded, n);
+            if (!new String(decoded, 0, n).equals(text)) badCuts++;
+        }
+        check(label + " split decode (" + badCuts + " bad cut(s) of " + (bits.limit() + 1) + ")", badCuts == 0);
+    }
+
+    private static void checkZeroAllocation(String text) throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            check("thread allocation counter available", false);
+            return;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        for (boolean contextModeling : new boolean[]{false, true}) {
+            String label = contextModeling ? "order-1" : "order-0";
+            HuffmanCoding huffman = codec(text, contextModeling);
+            BitBuffer bits = encode(huffman, text);
+            char[] chars = new char[text.length()];
+            CharBuffer buffer = CharBuffer.allocate(text.length());
+
+            checkAllocation(threads, label + " decode into char[]", () -> {
+                bits.rewind();
+                huffman.resetDecoder();
+                huffman.decode(bits, chars, 0);
+            });
+            checkAllocation(threads, label + " decode into CharBuffer", () -> {
+                bits.rewind();
+                buffer.clear();
+                huffman.resetDecoder();
+                huffman.decode(bits, buffer);
+            });
+        }
+
+        Random random = new Random(7);
+        int[] imageTypes = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_BYTE_GRAY};
+        for (int type : imageTypes) {
+            BufferedImage image = new BufferedImage(64, 64, type);
+            for (int x = 0; x < 64; x++) {
+                for (int y = 0; y < 64; y++) image.setRGB(x, y, random.nextInt());
+            }
+            ImageProcessor imageProcessor = new ImageProcessor();
+            imageProcessor.setImage(image);
+            int[] positions = imageProcessor.generatePixelPositions(500);
+            BitBuffer bits = BitBuffer.allocate(positions.length / 2);
+            checkAllocation(threads, "image extractBits (type " + type + ")", () -> {
+                bits.clear();
+                imageProcessor.extractBits(positions, bits);
+            });
+        }
+
+        byte[] audio = new byte[40_000];
+        random.nextBytes(audio);
+        AudioFormat format = new AudioFormat(44100, 16, 2, true, false);
+        WavProcessor wavProcessor = new WavProcessor();
+        wavProcessor.setAudioData(new AudioInputStream(new ByteArrayInputStream(audio), format, audio.length / 4));
+        int[] samples = wavProcessor.generateSamplePositions(500);
+        int[] bitPositions = new int[500];
+        for (int i = 0; i < bitPositions.length; i++) bitPositions[i] = i * 37;
+        BitBuffer bits = BitBuffer.allocate(500);
+        checkAllocation(threads, "WAV extractBits", () -> {
+            bits.clear();
+            wavProcessor.extractBits(bitPositions, bits);
+        });
+        checkAllocation(threads, "WAV extractSampleBits", () -> {
+            bits.clear();
+            wavProcessor.extractSampleBits(samples, bits);
+        });
+
+        // Les générateurs n'allouent que leurs tableaux de positions, sans Integer par position
+        ImageProcessor imageProcessor = new ImageProcessor();
+        imageProcessor.setImage(new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB));
+        checkPerPosition(threads, "image generatePixelPositions", () -> imageProcessor.generatePixelPositions(500));
+        checkPerPosition(threads, "WAV generateSamplePositions", () -> wavProcessor.generateSamplePositions(500));
+    }
+
+    private static void checkAllocation(com.sun.management.ThreadMXBean threads, String label, Runnable call) {
+        long best = measureAllocation(threads, call);
+        check(String.format("%s allocates %.2f bytes/call", label, (double) best / MEASURED_CALLS), best == 0);
+    }
+
+    private static void checkPerPosition(com.sun.management.ThreadMXBean threads, String label, Supplier<int[]> generator) {
+        int values = generator.get().length;
+        double perValue = (double) measureAllocation(threads, generator::get) / MEASURED_CALLS / values;
+        check(String.format("%s allocates %.2f bytes per returned int", label, perValue), perValue < BOXED_INTEGER_BYTES);
+    }
+
+    // Mesure la meilleure de plusieurs séries pour ignorer les recompilations du JIT
+    private static long measureAllocation(com.sun.management.ThreadMXBean threads, Runnable call) {
+        for (int i = 0; i < WARMUP_CALLS; i++) call.run();
+
+        long thread = Thread.currentThread().getId();
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < MEASURED_CALLS; i++) call.run();
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            best = Math.min(best, allocated);
+        }
+        return best;
+    }
+
+    private static void check(String label, boolean passed) {
+        System.out.println((passed ? "PASS " : "FAIL ") + label);
+        if (!passed) failures++;
+    }
+}